@@ -2,6 +2,7 @@ package net.zethmayr.benjamin.demo.koncertuuid.controller;
 
 import lombok.val;
 import net.zethmayr.benjamin.demo.koncertuuid.model.SimUuidGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,14 +15,23 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 
 @Controller
 public class SimUuidController {
+    private final SimUuidExecutor executor;
+
+    @Autowired
+    public SimUuidController(final SimUuidExecutor executor) {
+        this.executor = executor;
+    }
+
     // We do not maintain a default instance - we could, I suppose.
     @ResponseBody
     @RequestMapping(value = "/simUuid", method = GET)
-    public String simUuid(
+    public CompletableFuture<String> simUuid(
             final @RequestParam(required = false) Integer x,
             final @RequestParam(required = false) Integer y,
             final @RequestParam(required = false) Integer z
@@ -36,8 +46,15 @@ public class SimUuidController {
         if (z != null) {
             generatorBuilder.z(z);
         }
+        // building validates, and bad arguments should fail here on the request thread, not in the pool
         val generator = generatorBuilder.build();
-        return generator.generate();
+        return executor.submit(generator::generate);
+    }
+
+    @ResponseBody
+    @RequestMapping(value = "/simUuid/metrics", method = GET)
+    public SimUuidExecutor.Metrics metrics() {
+        return executor.getMetrics();
     }
 
     @ControllerAdvice
@@ -46,6 +63,11 @@ public class SimUuidController {
         protected ResponseEntity<Object> handleBadArguments(final RuntimeException re, final WebRequest request) {
             return handleExceptionInternal(re, re.getMessage(), new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
         }
+
+        @ExceptionHandler({SimUuidExecutor.OverloadedException.class, SimUuidExecutor.ShuttingDownException.class})
+        protected ResponseEntity<Object> handleUnavailable(final RuntimeException re, final WebRequest request) {
+            return handleExceptionInternal(re, re.getMessage(), new HttpHeaders(), HttpStatus.SERVICE_UNAVAILABLE, request);
+        }
     }
 
 }
@@ -0,0 +1,169 @@
+package net.zethmayr.benjamin.demo.koncertuuid.controller;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static lombok.AccessLevel.PUBLIC;
+
+/**
+ * Decides where generation runs.
+ * Generation is CPU bound, so in pooled mode (the default) it runs on a worker pool sized to the cores,
+ * and the servlet thread only waits asynchronously; the container's pool is sized for I/O, not for this.
+ * The queue in front of the workers is bounded - when it is full we refuse rather than pile up latency.
+ * Inline mode runs generation on the request thread, as before.
+ */
+@Component
+@Slf4j
+public class SimUuidExecutor {
+    public enum Mode {
+        INLINE, POOLED
+    }
+
+    @Getter(PUBLIC)
+    private final Mode mode;
+
+    private final ThreadPoolExecutor workers;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong computeNanos = new AtomicLong();
+
+    public SimUuidExecutor(
+            final @Value("${simuuid.execution.mode:pooled}") String mode,
+            final @Value("${simuuid.execution.threads:0}") int threads,
+            final @Value("${simuuid.execution.queueCapacity:256}") int queueCapacity
+    ) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        if (this.mode == Mode.POOLED) {
+            // 0 means one per core
+            val poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("queueCapacity must be positive");
+            }
+            val threadCount = new AtomicInteger();
+            workers = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        val thread = new Thread(runnable, "simUuid-worker-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, executor) -> {
+                        if (executor.isShutdown()) {
+                            throw new ShuttingDownException("Generation is shutting down");
+                        }
+                        rejected.incrementAndGet();
+                        throw new OverloadedException("Generation queue is full");
+                    });
+            LOG.info("Generating on {} workers behind a queue of {}", poolSize, queueCapacity);
+        } else {
+            workers = null;
+            LOG.info("Generating on request threads");
+        }
+    }
+
+    /**
+     * Thrown when the worker queue is full.
+     */
+    public static class OverloadedException extends RuntimeException {
+        OverloadedException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Thrown for work arriving after the workers were shut down. Not counted as rejected.
+     */
+    public static class ShuttingDownException extends RuntimeException {
+        ShuttingDownException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Counters since startup. Queue wait is from submission to a worker picking the work up;
+     * compute is the generation itself. Inline work never waits.
+     */
+    @Getter(PUBLIC)
+    public static class Metrics {
+        private final long completed;
+        private final long rejected;
+        private final long queueWaitNanos;
+        private final long computeNanos;
+
+        Metrics(final long completed, final long rejected, final long queueWaitNanos, final long computeNanos) {
+            this.completed = completed;
+            this.rejected = rejected;
+            this.queueWaitNanos = queueWaitNanos;
+            this.computeNanos = computeNanos;
+        }
+
+        /**
+         * @return what happened between an earlier snapshot and this one
+         */
+        public Metrics since(final Metrics earlier) {
+            return new Metrics(completed - earlier.completed, rejected - earlier.rejected,
+                    queueWaitNanos - earlier.queueWaitNanos, computeNanos - earlier.computeNanos);
+        }
+
+        public long getAverageQueueWaitNanos() {
+            return completed == 0 ? 0 : queueWaitNanos / completed;
+        }
+
+        public long getAverageComputeNanos() {
+            return completed == 0 ? 0 : computeNanos / completed;
+        }
+
+        @Override
+        public String toString() {
+            return "completed=" + completed + " rejected=" + rejected
+                    + " avgQueueWaitMicros=" + TimeUnit.NANOSECONDS.toMicros(getAverageQueueWaitNanos())
+                    + " avgComputeMicros=" + TimeUnit.NANOSECONDS.toMicros(getAverageComputeNanos());
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(final Supplier<T> work) {
+        val enqueued = System.nanoTime();
+        if (workers == null) {
+            return CompletableFuture.completedFuture(timed(work, enqueued));
+        }
+        return CompletableFuture.supplyAsync(() -> timed(work, enqueued), workers);
+    }
+
+    private <T> T timed(final Supplier<T> work, final long enqueued) {
+        val started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            computeNanos.addAndGet(System.nanoTime() - started);
+            queueWaitNanos.addAndGet(started - enqueued);
+            completed.incrementAndGet();
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(completed.get(), rejected.get(), queueWaitNanos.get(), computeNanos.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdown();
+        }
+        LOG.info("Generation {} at shutdown: {}", mode, getMetrics());
+    }
+}
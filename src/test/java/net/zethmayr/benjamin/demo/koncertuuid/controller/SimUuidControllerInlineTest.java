@@ -0,0 +1,37 @@
+package net.zethmayr.benjamin.demo.koncertuuid.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.OK;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "simuuid.execution.mode=inline")
+public class SimUuidControllerInlineTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SimUuidExecutor executor;
+
+    @Test
+    public void canGetValueFromEndpointInline() {
+        assertThat(executor.getMode(), is(SimUuidExecutor.Mode.INLINE));
+        final ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + port + "/simUuid", String.class);
+        assertThat(response.getStatusCode(), is(OK));
+        assertThat(response.getBody().matches("^[0-9]{30,40}$"), is(true));
+    }
+}
@@ -0,0 +1,72 @@
+package net.zethmayr.benjamin.demo.koncertuuid.controller;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {"simuuid.execution.threads=1", "simuuid.execution.queueCapacity=1"})
+public class SimUuidControllerOverloadTest {
+    @LocalServerPort
+    private int port;
+
+    private String root;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SimUuidExecutor executor;
+
+    @Before
+    public void setUp() {
+        root = "http://localhost:"+port;
+    }
+
+    @Test
+    public void yieldsServiceUnavailableWhenTheQueueIsFull() throws Exception {
+        val release = new CountDownLatch(1);
+        val started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        try {
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+            executor.submit(() -> null); // the only queue slot
+            final ResponseEntity<String> response = restTemplate.getForEntity(root + "/simUuid", String.class);
+            assertThat(response.getStatusCode(), is(SERVICE_UNAVAILABLE));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void exposesMetrics() {
+        final ResponseEntity<String> response = restTemplate.getForEntity(root + "/simUuid/metrics", String.class);
+        assertThat(response.getStatusCode(), is(OK));
+        assertThat(response.getBody().contains("\"queueWaitNanos\""), is(true));
+    }
+}
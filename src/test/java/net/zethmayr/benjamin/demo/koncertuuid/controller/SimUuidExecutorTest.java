@@ -0,0 +1,135 @@
+package net.zethmayr.benjamin.demo.koncertuuid.controller;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class SimUuidExecutorTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private SimUuidExecutor underTest;
+
+    @After
+    public void tearDown() {
+        if (underTest != null) {
+            underTest.shutdown();
+        }
+    }
+
+    @Test
+    public void inlineRunsOnTheCallingThread() throws Exception {
+        underTest = new SimUuidExecutor("inline", 0, 1);
+        assertThat(underTest.getMode(), is(SimUuidExecutor.Mode.INLINE));
+        val caller = Thread.currentThread().getName();
+        final CompletableFuture<String> future = underTest.submit(() -> Thread.currentThread().getName());
+        assertThat(future.isDone(), is(true));
+        assertThat(future.get(), is(caller));
+    }
+
+    @Test
+    public void pooledRunsOnAWorker() throws Exception {
+        underTest = new SimUuidExecutor("pooled", 2, 4);
+        assertThat(underTest.getMode(), is(SimUuidExecutor.Mode.POOLED));
+        final String ranOn = underTest.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertThat(ranOn, startsWith("simUuid-worker-"));
+        assertThat(ranOn, not(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void countsQueueWaitAndComputeSeparately() throws Exception {
+        underTest = new SimUuidExecutor("pooled", 1, 4);
+        final CompletableFuture<Integer> first = underTest.submit(() -> {
+            sleep(50);
+            return 1;
+        });
+        final CompletableFuture<Integer> second = underTest.submit(() -> 2);
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        val metrics = underTest.getMetrics();
+        assertThat(metrics.getCompleted(), is(2L));
+        assertThat(metrics.getRejected(), is(0L));
+        // the second waited behind the first's sleep
+        assertThat(metrics.getQueueWaitNanos(), greaterThan(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertThat(metrics.getComputeNanos(), greaterThan(TimeUnit.MILLISECONDS.toNanos(40)));
+    }
+
+    @Test
+    public void refusesWhenTheQueueIsFull() throws Exception {
+        underTest = new SimUuidExecutor("pooled", 1, 1);
+        val release = new CountDownLatch(1);
+        val started = new CountDownLatch(1);
+        underTest.submit(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await(5, TimeUnit.SECONDS);
+        underTest.submit(() -> 2); // fills the queue
+        try {
+            thrown.expect(SimUuidExecutor.OverloadedException.class);
+            underTest.submit(() -> 3);
+        } finally {
+            release.countDown();
+            assertThat(underTest.getMetrics().getRejected(), is(1L));
+        }
+    }
+
+    @Test
+    public void refusesAfterShutdownWithoutCountingARejection() {
+        underTest = new SimUuidExecutor("pooled", 1, 1);
+        underTest.shutdown();
+        try {
+            thrown.expect(SimUuidExecutor.ShuttingDownException.class);
+            underTest.submit(() -> 1);
+        } finally {
+            assertThat(underTest.getMetrics().getRejected(), is(0L));
+        }
+    }
+
+    @Test
+    public void metricsCanBeDifferenced() {
+        underTest = new SimUuidExecutor("inline", 0, 1);
+        val before = underTest.getMetrics();
+        underTest.submit(() -> 1);
+        underTest.submit(() -> 2);
+        val between = underTest.getMetrics().since(before);
+        assertThat(between.getCompleted(), is(2L));
+        assertThat(between.getAverageQueueWaitNanos(), lessThan(TimeUnit.MILLISECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void throwsOnUnknownMode() {
+        thrown.expect(IllegalArgumentException.class);
+        new SimUuidExecutor("sideways", 0, 1);
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
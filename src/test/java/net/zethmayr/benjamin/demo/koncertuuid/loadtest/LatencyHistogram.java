@@ -0,0 +1,88 @@
+package net.zethmayr.benjamin.demo.koncertuuid.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latencies in microseconds into log-linear buckets, HdrHistogram-style.
+ * Values below 128 are exact; above that, each power of two is split into 64 sub-buckets,
+ * so any reported percentile is within about 1.6% of the recorded value.
+ * Recording is lock-free and may be done from any number of threads.
+ */
+public class LatencyHistogram {
+    private static final int EXACT_LIMIT = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_MAGNITUDE = 7; // log2(EXACT_LIMIT)
+    private static final int MAX_MAGNITUDE = 40; // about 12 days, in micros - plenty
+    private static final long MAX_TRACKABLE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(
+            EXACT_LIMIT + (MAX_MAGNITUDE - EXACT_MAGNITUDE + 1) * SUB_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long micros) {
+        final long value = Math.min(Math.max(micros, 0), MAX_TRACKABLE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMin() {
+        return totalCount.get() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the highest value equivalent to the recorded value at the given percentile,
+     * so a reported percentile never understates what was observed.
+     *
+     * @param percentile from 0.0 to 100.0
+     * @return the value at that percentile in microseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        final long wanted = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= wanted) {
+                return Math.min(highestEquivalent(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(final long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (magnitude - EXACT_MAGNITUDE) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestEquivalent(final int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        final int magnitude = (index - EXACT_LIMIT) / SUB_BUCKETS + EXACT_MAGNITUDE;
+        final int subBucket = (index - EXACT_LIMIT) % SUB_BUCKETS;
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final long lowest = (1L << magnitude) | ((long) subBucket << shift);
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,56 @@
+package net.zethmayr.benjamin.demo.koncertuuid.loadtest;
+
+import lombok.val;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+    @Test
+    public void reportsNothingWhenEmpty() {
+        val underTest = new LatencyHistogram();
+        assertThat(underTest.getTotalCount(), is(0L));
+        assertThat(underTest.getMin(), is(0L));
+        assertThat(underTest.getValueAtPercentile(99.0), is(0L));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        val underTest = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            underTest.record(i);
+        }
+        assertThat(underTest.getTotalCount(), is(100L));
+        assertThat(underTest.getMin(), is(1L));
+        assertThat(underTest.getMax(), is(100L));
+        assertThat(underTest.getValueAtPercentile(50.0), is(50L));
+        assertThat(underTest.getValueAtPercentile(99.0), is(99L));
+        assertThat(underTest.getValueAtPercentile(100.0), is(100L));
+    }
+
+    @Test
+    public void largeValuesAreWithinBucketPrecision() {
+        val underTest = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            underTest.record(i * 10);
+        }
+        val p90 = underTest.getValueAtPercentile(90.0);
+        assertThat(p90, greaterThanOrEqualTo(900000L));
+        assertThat(p90, lessThanOrEqualTo(900000L + 900000L / 64));
+        assertThat(underTest.getValueAtPercentile(100.0), is(1000000L));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueTheyClaim() {
+        for (long value = 0; value < 1 << 16; value++) {
+            val index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestEquivalent(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestEquivalent(index - 1), lessThanOrEqualTo(value - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package net.zethmayr.benjamin.demo.koncertuuid.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static lombok.AccessLevel.PUBLIC;
+
+/**
+ * Drives a single URL, open or closed loop.
+ * <p>
+ * Open loop (a positive requestsPerSecond) sends at a constant arrival rate, regardless of how fast it answers.
+ * Each request's latency is measured from when it was scheduled to be sent, not from when a worker got to it,
+ * so a stalled server shows up in the percentiles instead of quietly lowering the offered load.
+ * Concurrency is the number of connections allowed in flight; arrivals beyond that wait on the client side.
+ * <p>
+ * Closed loop (requestsPerSecond of 0) keeps every connection busy, sending again as soon as an answer arrives.
+ * That saturates the server, so achieved throughput is its capacity at that concurrency.
+ * <p>
+ * HttpURLConnection keeps only http.maxConnections (default 5) idle connections per host, and reads that property
+ * once, on first use. Set it to at least the highest concurrency before any connection is made in the JVM,
+ * as {@link SimUuidLoadTest} does - otherwise most requests above 5 connections pay for a fresh TCP connect.
+ * <p>
+ * Requests still outstanding a minute after the run ends are abandoned and counted as errors;
+ * nothing is recorded into a {@link Result} once it has been returned.
+ */
+@Slf4j
+public class LoadGenerator {
+    static final String MAX_CONNECTIONS = "http.maxConnections";
+    private static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+    private final URL target;
+    private final int requestsPerSecond;
+    private final int concurrency;
+    private final long warmupNanos;
+    private final long durationNanos;
+
+    @Builder
+    private LoadGenerator(final URL target, final int requestsPerSecond, final int concurrency,
+                          final long warmupSeconds, final long durationSeconds) {
+        if (target == null) {
+            throw new IllegalArgumentException("target is required");
+        }
+        if (requestsPerSecond < 0) {
+            throw new IllegalArgumentException("requestsPerSecond cannot be negative");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("durationSeconds must be positive");
+        }
+        this.target = target;
+        this.requestsPerSecond = requestsPerSecond;
+        this.concurrency = concurrency;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(Math.max(warmupSeconds, 0));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        if (Integer.getInteger(MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS) < concurrency) {
+            LOG.warn("{} is below {} connections; most requests will open a new connection", MAX_CONNECTIONS, concurrency);
+        }
+    }
+
+    /**
+     * Guarded by itself, so closing it and recording into it cannot interleave.
+     */
+    public static class Result {
+        @Getter(PUBLIC)
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long errors;
+        private long outstanding;
+        private long elapsedNanos;
+        private boolean closed;
+
+        private synchronized void started() {
+            outstanding++;
+        }
+
+        private synchronized void succeeded(final long micros) {
+            if (!closed) {
+                outstanding--;
+                histogram.record(micros);
+            }
+        }
+
+        private synchronized void failed() {
+            if (!closed) {
+                outstanding--;
+                errors++;
+            }
+        }
+
+        private synchronized void close(final long elapsedNanos) {
+            closed = true;
+            this.elapsedNanos = elapsedNanos;
+            if (outstanding > 0) {
+                LOG.warn("Abandoning {} requests still outstanding; counting them as errors", outstanding);
+                errors += outstanding;
+            }
+        }
+
+        public synchronized long getErrorCount() {
+            return errors;
+        }
+
+        public synchronized double getAchievedRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : histogram.getTotalCount() * 1e9 / elapsedNanos;
+        }
+    }
+
+    public Result run() throws InterruptedException {
+        val workers = Executors.newFixedThreadPool(concurrency);
+        val result = new Result();
+        try {
+            val start = System.nanoTime();
+            val measureFrom = start + warmupNanos;
+            val end = measureFrom + durationNanos;
+            if (requestsPerSecond == 0) {
+                saturate(workers, result, measureFrom, end);
+            } else {
+                offer(workers, result, start, measureFrom, end);
+            }
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+            result.close(System.nanoTime() - measureFrom);
+        } finally {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    private void saturate(final ExecutorService workers, final Result result, final long measureFrom, final long end) {
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                long sent = System.nanoTime();
+                while (sent < end) {
+                    val measured = sent >= measureFrom;
+                    if (measured) {
+                        result.started();
+                    }
+                    val ok = request();
+                    if (measured) {
+                        complete(result, ok, sent);
+                    }
+                    sent = System.nanoTime();
+                }
+            });
+        }
+    }
+
+    private void offer(final ExecutorService workers, final Result result,
+                       final long start, final long measureFrom, final long end) {
+        val intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long intended = start;
+        while (intended < end) {
+            val delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            final long scheduledAt = intended;
+            val measured = scheduledAt >= measureFrom;
+            if (measured) {
+                result.started();
+            }
+            workers.execute(() -> {
+                val ok = request();
+                if (!measured) {
+                    return;
+                }
+                complete(result, ok, scheduledAt);
+            });
+            intended += intervalNanos;
+        }
+    }
+
+    private static void complete(final Result result, final boolean ok, final long from) {
+        if (ok) {
+            result.succeeded(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - from));
+        } else {
+            result.failed();
+        }
+    }
+
+    private boolean request() {
+        try {
+            val connection = (HttpURLConnection) target.openConnection();
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            val status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                consume(body);
+            }
+            return status == HttpURLConnection.HTTP_OK;
+        } catch (IOException ioe) {
+            LOG.debug("Request failed", ioe);
+            return false;
+        }
+    }
+
+    private static void consume(final InputStream body) throws IOException {
+        if (body == null) {
+            return;
+        }
+        val buffer = new byte[256];
+        while (body.read(buffer) != -1) {
+            // drain so the connection goes back to the keep-alive cache
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package net.zethmayr.benjamin.demo.koncertuuid.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The same load, with generation on the request threads - the baseline for the pooled report.
+ */
+@TestPropertySource(properties = "simuuid.execution.mode=inline")
+public class SimUuidInlineLoadTest extends SimUuidLoadTest {
+}
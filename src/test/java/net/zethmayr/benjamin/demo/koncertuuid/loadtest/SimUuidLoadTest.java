@@ -0,0 +1,173 @@
+package net.zethmayr.benjamin.demo.koncertuuid.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import net.zethmayr.benjamin.demo.koncertuuid.controller.SimUuidExecutor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Not a correctness test - this only runs under the loadtest profile, {@code mvn test -Ploadtest}.
+ * Every x/y/z mix is driven at every concurrency level, and one line per pair goes into a tab-separated report
+ * under target/loadtest, so runs from different builds can be diffed or pasted side by side.
+ * <ul>
+ *     <li>loadtest.mixes - semicolon separated x,y,z triples; an empty member leaves that parameter defaulted</li>
+ *     <li>loadtest.concurrency - comma separated connection counts</li>
+ *     <li>loadtest.rate - comma separated requests per second offered to every pair;
+ *     0 is closed loop, every connection always busy</li>
+ *     <li>loadtest.warmupSeconds and loadtest.durationSeconds - per run</li>
+ * </ul>
+ * This runs with the configured execution mode; {@link SimUuidInlineLoadTest} repeats it with generation inline.
+ * The closed-loop rows are the benchmark: they saturate the server, so comparing achievedRps and p99 between
+ * the two reports at 16 and 64 connections shows what the worker pool buys.
+ * The load generator runs in the same JVM, on the same cores, as the server - the client's own CPU use
+ * is charged to both modes alike, but it does compress the difference between them.
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+// At TRACE, console logging of every palindrome costs more than generating it; we want to measure the generator.
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "logging.level.net.zethmayr.benjamin.demo.koncertuuid=WARN")
+public class SimUuidLoadTest {
+    private static final String HEADER = String.join("\t",
+            "mode", "x", "y", "z", "concurrency", "offeredRps", "achievedRps", "count", "errors",
+            "p50Ms", "p90Ms", "p99Ms", "p999Ms", "maxMs", "avgQueueMs", "avgComputeMs");
+
+    private static final String CONCURRENCY = System.getProperty("loadtest.concurrency", "1,16,64");
+
+    static {
+        // HttpURLConnection reads this once, on first use - it has to be raised before anything connects.
+        int connections = 0;
+        for (final String concurrency : CONCURRENCY.split(",")) {
+            connections = Math.max(connections, Integer.parseInt(concurrency.trim()));
+        }
+        if (Integer.getInteger(LoadGenerator.MAX_CONNECTIONS, 0) < connections) {
+            System.setProperty(LoadGenerator.MAX_CONNECTIONS, Integer.toString(connections));
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimUuidExecutor executor;
+
+    private String root;
+
+    @Before
+    public void setUp() {
+        root = "http://localhost:" + port;
+    }
+
+    @Test
+    public void reportsLatencyPercentiles() throws Exception {
+        val mixes = System.getProperty("loadtest.mixes", ",,;3,23,20;,,99").split(";");
+        val concurrencies = CONCURRENCY.split(",");
+        val rates = System.getProperty("loadtest.rate", "200,0").split(",");
+        val warmupSeconds = Long.getLong("loadtest.warmupSeconds", 2);
+        val durationSeconds = Long.getLong("loadtest.durationSeconds", 10);
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (val mix : mixes) {
+            val xyz = (mix + ",,").split(",", -1);
+            for (val concurrency : concurrencies) {
+                for (val rate : rates) {
+                    val generator = LoadGenerator.builder()
+                            .target(new URL(root + "/simUuid" + query(xyz[0], xyz[1], xyz[2])))
+                            .requestsPerSecond(Integer.parseInt(rate.trim()))
+                            .concurrency(Integer.parseInt(concurrency.trim()))
+                            .warmupSeconds(warmupSeconds)
+                            .durationSeconds(durationSeconds)
+                            .build();
+                    LOG.warn("Driving x={} y={} z={} at {} rps over {} connections",
+                            xyz[0], xyz[1], xyz[2], offered(rate), concurrency);
+                    val before = executor.getMetrics();
+                    val result = generator.run();
+                    val line = reportLine(xyz, concurrency.trim(), offered(rate), result,
+                            executor.getMetrics().since(before));
+                    LOG.warn(line);
+                    lines.add(line);
+                    assertThat(result.getHistogram().getTotalCount(), greaterThan(0L));
+                }
+            }
+        }
+        writeReport(lines);
+    }
+
+    private static String query(final String x, final String y, final String z) {
+        val query = new StringBuilder();
+        appendParameter(query, "x", x);
+        appendParameter(query, "y", y);
+        appendParameter(query, "z", z);
+        return query.toString();
+    }
+
+    private static void appendParameter(final StringBuilder query, final String name, final String value) {
+        if (value.trim().isEmpty()) {
+            return;
+        }
+        query.append(query.length() == 0 ? "?" : "&").append(name).append("=").append(value.trim());
+    }
+
+    private static String offered(final String rate) {
+        return Integer.parseInt(rate.trim()) == 0 ? "closed" : rate.trim();
+    }
+
+    // executor metrics include warmup; close enough for an average
+    private String reportLine(final String[] xyz, final String concurrency, final String offered,
+                              final LoadGenerator.Result result, final SimUuidExecutor.Metrics metrics) {
+        val histogram = result.getHistogram();
+        return String.join("\t",
+                executor.getMode().name().toLowerCase(Locale.ROOT),
+                defaulted(xyz[0]), defaulted(xyz[1]), defaulted(xyz[2]), concurrency,
+                offered,
+                String.format(Locale.ROOT, "%.1f", result.getAchievedRequestsPerSecond()),
+                Long.toString(histogram.getTotalCount()),
+                Long.toString(result.getErrorCount()),
+                millis(histogram.getValueAtPercentile(50.0)),
+                millis(histogram.getValueAtPercentile(90.0)),
+                millis(histogram.getValueAtPercentile(99.0)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMax()),
+                millis(TimeUnit.NANOSECONDS.toMicros(metrics.getAverageQueueWaitNanos())),
+                millis(TimeUnit.NANOSECONDS.toMicros(metrics.getAverageComputeNanos())));
+    }
+
+    private static String defaulted(final String value) {
+        return value.trim().isEmpty() ? "-" : value.trim();
+    }
+
+    private static String millis(final long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    private void writeReport(final List<String> lines) throws IOException {
+        val directory = Paths.get("target", "loadtest");
+        Files.createDirectories(directory);
+        val stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        val report = directory.resolve("simUuid-" + executor.getMode().name().toLowerCase(Locale.ROOT) + "-" + stamp + ".tsv");
+        Files.write(report, lines, StandardCharsets.UTF_8);
+        LOG.warn("Wrote {}", report.toAbsolutePath());
+    }
+}